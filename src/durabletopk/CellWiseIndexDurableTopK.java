@@ -6,6 +6,7 @@ import java.util.*;
  Core class to compute and query durability-based Top-K indexes for temporal objects over a series of time snapshots.
  */
 public class CellWiseIndexDurableTopK {
+    private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("CellWiseIndex");
     private int[][] durabilityMatrix;
     private int[][] bestKApproxMap;
     private int totalTimestamps;
@@ -28,6 +29,7 @@ public class CellWiseIndexDurableTopK {
         maxObjectId = objects.stream().mapToInt(obj -> obj.id).max().orElse(0); // Determine max object ID to size arrays
         durabilityMatrix = new int[maxObjectId + 1][topKValues.length];
         bestKApproxMap = new int[maxObjectId + 1][51]; // For query-k values from 1 to 50
+        long phaseStart = System.nanoTime();
         TreeMap<Integer, List<TemporalObject>> snapshotMap = new TreeMap<>();
         for (TemporalObject obj : objects) {
             for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
@@ -35,11 +37,17 @@ public class CellWiseIndexDurableTopK {
                 snapshotMap.computeIfAbsent(timestamp, k -> new ArrayList<>()).add(obj);
             }
         }
+        metrics.recordPhase("grouping", System.nanoTime() - phaseStart);
         // Count how often each object appears in the top-K at each time point
+        long sortNanos = 0;
+        long countNanos = 0;
         for (int timestamp : snapshotMap.keySet()) {
             List<TemporalObject> snapshot = snapshotMap.get(timestamp);
+            long sortStart = System.nanoTime();
             // Sort objects by value at current timestamp in descending order
             snapshot.sort((a, b) -> Double.compare(b.getValueAt(timestamp), a.getValueAt(timestamp)));
+            long countStart = System.nanoTime();
+            sortNanos += countStart - sortStart;
             for (int kIndex = 0; kIndex < topKValues.length; kIndex++) {
                 int k = topKValues[kIndex];
                 int limit = Math.min(k, snapshot.size());
@@ -48,9 +56,13 @@ public class CellWiseIndexDurableTopK {
                     durabilityMatrix[objectId][kIndex]++;
                 }
             }
+            countNanos += System.nanoTime() - countStart;
         }
+        metrics.recordPhase("sorting", sortNanos);
+        metrics.recordPhase("counting", countNanos);
 
         // Precompute the best approximate k-index for any query-k from 1 to 50
+        phaseStart = System.nanoTime();
         for (int objectId = 0; objectId <= maxObjectId; objectId++) {
             for (int queryK = 1; queryK <= 50; queryK++) {
                 double bestError = Double.MAX_VALUE;
@@ -69,6 +81,8 @@ public class CellWiseIndexDurableTopK {
                 bestKApproxMap[objectId][queryK] = bestKIndex;
             }
         }
+        metrics.recordPhase("approximationMap", System.nanoTime() - phaseStart);
+        metrics.setIndexBytes(4L * (maxObjectId + 1) * (topKValues.length + 51));
     }
 
     /*
@@ -78,6 +92,7 @@ public class CellWiseIndexDurableTopK {
         if (k <= 0 || tau < 0 || tau > 1) {
             throw new IllegalArgumentException("Invalid query parameters!!");
         }
+        long queryStart = System.nanoTime();
         List<Integer> resultIds = new ArrayList<>();
         int queryK = Math.min(k, 50); // Limit query-k to 50 for approximation
         for (int objectId = 0; objectId <= maxObjectId; objectId++) {
@@ -88,6 +103,10 @@ public class CellWiseIndexDurableTopK {
                 resultIds.add(objectId);
             }
         }
+        if (Arrays.binarySearch(topKValues, k) >= 0) {
+            metrics.recordCacheHit();
+        }
+        metrics.recordQuery(System.nanoTime() - queryStart, maxObjectId + 1, resultIds.size(), totalTimestamps);
         return resultIds;
     }
 }
@@ -3,6 +3,7 @@ package durabletopk;
 import java.util.*;
 
 public class ColumnIndexDurableTopK {
+    private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("ColumnIndex");
     private final Map<Integer, Map<Integer, Integer>> objectDurability;
     private final List<Integer> indexedKs;
     private final int totalTime;
@@ -12,16 +13,23 @@ public class ColumnIndexDurableTopK {
         this.indexedKs = ks;
         this.totalTime = totalTime;
 
+        long phaseStart = System.nanoTime();
         TreeMap<Integer, List<TemporalObject>> timeIndex = new TreeMap<>();
         for (TemporalObject obj : objects) {
             for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
                 timeIndex.computeIfAbsent(entry.getKey(), x -> new ArrayList<>()).add(obj);
             }
         }
+        metrics.recordPhase("grouping", System.nanoTime() - phaseStart);
+        long sortNanos = 0;
+        long countNanos = 0;
         for (int time : timeIndex.keySet()) {
             final int currentTime = time;
             List<TemporalObject> snapshot = timeIndex.get(currentTime);
+            long sortStart = System.nanoTime();
             snapshot.sort((o1, o2) -> Double.compare(o2.getValueAt(currentTime), o1.getValueAt(currentTime)));
+            long countStart = System.nanoTime();
+            sortNanos += countStart - sortStart;
             for (int k : indexedKs) {
                 for (int i = 0; i < Math.min(k, snapshot.size()); i++) {
                     int id = snapshot.get(i).id;
@@ -29,11 +37,23 @@ public class ColumnIndexDurableTopK {
                     map.put(k, map.getOrDefault(k, 0) + 1);
                 }
             }
+            countNanos += System.nanoTime() - countStart;
         }
+        metrics.recordPhase("sorting", sortNanos);
+        metrics.recordPhase("counting", countNanos);
+        long entries = 0;
+        for (Map<Integer, Integer> counts : objectDurability.values()) {
+            entries += counts.size();
+        }
+        metrics.setIndexBytes(8L * entries);
     }
 
     public List<Integer> query(int k, double tau) {
+        long queryStart = System.nanoTime();
         int bestK = findBestApproximateK(k);
+        if (bestK == k) {
+            metrics.recordCacheHit();
+        }
         List<Integer> result = new ArrayList<>();
         for (Map.Entry<Integer, Map<Integer, Integer>> entry : objectDurability.entrySet()) {
             int id = entry.getKey();
@@ -43,6 +63,7 @@ public class ColumnIndexDurableTopK {
                 result.add(id);
             }
         }
+        metrics.recordQuery(System.nanoTime() - queryStart, objectDurability.size(), result.size(), totalTime);
         return result;
     }
 
@@ -0,0 +1,218 @@
+package durabletopk;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ Low-overhead counters shared by every instance of one algorithm: build phase timers, a query latency
+ histogram, objects scanned vs. returned, timestamps touched, cache hits and estimated index bytes.
+ Each algorithm registers once under durabletopk:type=Metrics,name=<algorithm> on the platform MBean server.
+ Index bytes estimate the primitive payload of the latest build and leave out JVM object overhead.
+ Every algorithm records the query counters with the same meaning:
+ timestamps touched is the number of timestamps whose data the answer is computed from, whether read raw or
+ folded into a precomputed count (the queried window, or every indexed timestamp for whole-history indexes).
+ Sampling counts one per sample, so a timestamp drawn twice counts twice, as it is also read twice.
+ A cache hit is a query answered from an index built for exactly the requested k.
+ */
+public class DurableTopKMetrics implements DurableTopKMetricsMXBean {
+    private static final Map<String, DurableTopKMetrics> registry = new ConcurrentHashMap<>();
+    // Bucket i holds latencies in [2^(i-1), 2^i) microseconds; bucket 0 holds anything under 1 us
+    private static final int LATENCY_BUCKETS = 40;
+
+    private final String algorithm;
+    private final Map<String, LongAdder> phaseNanos = new ConcurrentSkipListMap<>();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS);
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAdder objectsScanned = new LongAdder();
+    private final LongAdder objectsReturned = new LongAdder();
+    private final LongAdder timestampsTouched = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final AtomicLong indexBytes = new AtomicLong();
+
+    private DurableTopKMetrics(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /*
+    Returns the shared metrics for an algorithm, creating and registering it with JMX on first use.
+     */
+    public static DurableTopKMetrics forAlgorithm(String algorithm) {
+        return registry.computeIfAbsent(algorithm, name -> {
+            DurableTopKMetrics metrics = new DurableTopKMetrics(name);
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName("durabletopk:type=Metrics,name=" + ObjectName.quote(name));
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(metrics, objectName);
+                }
+            } catch (JMException e) {
+                System.err.println("Failed to register metrics MBean for " + name + ": " + e.getMessage());
+            }
+            return metrics;
+        });
+    }
+
+    public void recordPhase(String phase, long nanos) {
+        phaseNanos.computeIfAbsent(phase, p -> new LongAdder()).add(nanos);
+    }
+
+    public void recordQuery(long nanos, long scanned, long returned, long timestamps) {
+        queryCount.increment();
+        queryNanos.add(nanos);
+        objectsScanned.add(scanned);
+        objectsReturned.add(returned);
+        timestampsTouched.add(timestamps);
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        latencyHistogram.incrementAndGet(bucket);
+    }
+
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    public void setIndexBytes(long bytes) {
+        indexBytes.set(bytes);
+    }
+
+    @Override
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    @Override
+    public double getMeanQueryLatencyMicros() {
+        long count = queryCount.sum();
+        return count == 0 ? 0.0 : queryNanos.sum() / 1000.0 / count;
+    }
+
+    @Override
+    public long getQueryLatencyP50Micros() {
+        return latencyPercentileMicros(0.50);
+    }
+
+    @Override
+    public long getQueryLatencyP99Micros() {
+        return latencyPercentileMicros(0.99);
+    }
+
+    @Override
+    public long getObjectsScanned() {
+        return objectsScanned.sum();
+    }
+
+    @Override
+    public long getObjectsReturned() {
+        return objectsReturned.sum();
+    }
+
+    @Override
+    public long getTimestampsTouched() {
+        return timestampsTouched.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getIndexBytes() {
+        return indexBytes.get();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseNanos() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : phaseNanos.entrySet()) {
+            phases.put(entry.getKey(), entry.getValue().sum());
+        }
+        return phases;
+    }
+
+    @Override
+    public void reset() {
+        phaseNanos.clear();
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            latencyHistogram.set(i, 0);
+        }
+        queryCount.reset();
+        queryNanos.reset();
+        objectsScanned.reset();
+        objectsReturned.reset();
+        timestampsTouched.reset();
+        cacheHits.reset();
+        indexBytes.set(0);
+    }
+
+    /*
+    Upper bound of the histogram bucket containing the requested percentile.
+     */
+    private long latencyPercentileMicros(double percentile) {
+        long total = 0;
+        long[] counts = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            counts[i] = latencyHistogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (LATENCY_BUCKETS - 1);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("Algorithm", algorithm);
+        row.put("Queries", getQueryCount());
+        row.put("MeanLatency(us)", String.format("%.1f", getMeanQueryLatencyMicros()));
+        row.put("P50Latency(us)", getQueryLatencyP50Micros());
+        row.put("P99Latency(us)", getQueryLatencyP99Micros());
+        row.put("ObjectsScanned", getObjectsScanned());
+        row.put("ObjectsReturned", getObjectsReturned());
+        row.put("TimestampsTouched", getTimestampsTouched());
+        row.put("CacheHits", getCacheHits());
+        row.put("IndexBytes", getIndexBytes());
+        for (Map.Entry<String, Long> phase : getPhaseNanos().entrySet()) {
+            row.put("Build." + phase.getKey() + "(ms)", phase.getValue() / 1_000_000);
+        }
+        return row;
+    }
+
+    public static List<Map<String, Object>> snapshotAll() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (DurableTopKMetrics metrics : new TreeMap<>(registry).values()) {
+            rows.add(metrics.snapshot());
+        }
+        return rows;
+    }
+
+    /*
+    Hands a snapshot of every registered algorithm to the consumer at a fixed rate on a daemon thread.
+    Shut down the returned executor to stop reporting.
+     */
+    public static ScheduledExecutorService startPeriodicSnapshots(long periodMillis, Consumer<List<Map<String, Object>>> consumer) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "durabletopk-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> consumer.accept(snapshotAll()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+}
@@ -0,0 +1,30 @@
+package durabletopk;
+
+import java.util.Map;
+
+/**
+ JMX view of the per-algorithm counters collected by DurableTopKMetrics.
+ */
+public interface DurableTopKMetricsMXBean {
+    long getQueryCount();
+
+    double getMeanQueryLatencyMicros();
+
+    long getQueryLatencyP50Micros();
+
+    long getQueryLatencyP99Micros();
+
+    long getObjectsScanned();
+
+    long getObjectsReturned();
+
+    long getTimestampsTouched();
+
+    long getCacheHits();
+
+    long getIndexBytes();
+
+    Map<String, Long> getPhaseNanos();
+
+    void reset();
+}
@@ -0,0 +1,218 @@
+package durabletopk;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ Cost-based front-end that picks an algorithm per query. Each candidate's cost is estimated in abstract
+ work units from dataset statistics (objects, timestamps, entries per snapshot) plus the build cost of any
+ index not yet cached, then converted to nanoseconds with a per-algorithm factor refined from observed latency.
+ Build cost is spread over the number of queries seen so far, so an index is bought once the workload has
+ repeated enough to pay for it. The cheapest candidate whose error bound fits the caller's tolerance is executed.
+ */
+public class DurableTopKPlanner {
+    // Error bound of a plan with no provable guarantee (durability always lies in [0, 1]); only a tolerance of 1 admits it
+    public static final double UNBOUNDED_ERROR = 1.0;
+    // Sampling error bound holds for all objects at once with probability 1 - SAMPLING_CONFIDENCE_DELTA
+    public static final double SAMPLING_CONFIDENCE_DELTA = 0.05;
+    // Weight of the newest observation when refining the nanos-per-unit factor
+    private static final double LEARNING_RATE = 0.2;
+
+    public static class Plan {
+        public final String algorithm;
+        public final double estimatedNanos;
+        public final double errorBound;
+        public final boolean needsBuild;
+        final double units;
+        final Supplier<List<Integer>> execution;
+
+        Plan(String algorithm, double buildUnits, double queryUnits, double amortization, double nanosPerUnit,
+             double errorBound, Supplier<List<Integer>> execution) {
+            this.algorithm = algorithm;
+            this.units = buildUnits + queryUnits;
+            this.estimatedNanos = (buildUnits / amortization + queryUnits) * nanosPerUnit;
+            this.errorBound = errorBound;
+            this.needsBuild = buildUnits > 0;
+            this.execution = execution;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + " (est " + String.format("%.2f", estimatedNanos / 1_000_000) + " ms, error <= "
+                    + String.format("%.3f", errorBound) + (needsBuild ? ", builds index" : "") + ")";
+        }
+    }
+
+    private final List<TemporalObject> objects;
+    private final List<Integer> indexedKs;
+    private final int totalTime;
+    private final int numObjects;
+    private final long totalEntries;
+    private final double avgSnapshotSize;
+    private final double sortCostPerSnapshot;
+
+    private final Map<String, Double> nanosPerUnit = new HashMap<>();
+    private final Map<Integer, PrefixSumDurableTopK> prefixByK = new HashMap<>();
+    private final Map<Integer, IntervalIndexDurableTopK> intervalByK = new HashMap<>();
+    private final Map<Integer, GeometricDurableTopK> geometricByK = new HashMap<>();
+    private SamplingDurableTopK sampling;
+    private ObliviousIndexDurableTopK oblivious;
+    private ColumnIndexDurableTopK column;
+    private CellWiseIndexDurableTopK cellWise;
+    private Plan lastPlan;
+    private int queriesSeen;
+
+    public DurableTopKPlanner(List<TemporalObject> objects, List<Integer> indexedKs, int totalTime) {
+        if (objects == null || indexedKs == null || indexedKs.isEmpty() || totalTime <= 0) {
+            throw new IllegalArgumentException("Invalid input to DurableTopKPlanner constructor.");
+        }
+        this.objects = objects;
+        this.indexedKs = new ArrayList<>(indexedKs);
+        this.totalTime = totalTime;
+        this.numObjects = objects.size();
+        long entries = 0;
+        for (TemporalObject obj : objects) {
+            entries += obj.timeSeries.size();
+        }
+        this.totalEntries = entries;
+        this.avgSnapshotSize = Math.max(1.0, (double) entries / totalTime);
+        this.sortCostPerSnapshot = avgSnapshotSize * Math.max(1.0, Math.log(avgSnapshotSize) / Math.log(2));
+    }
+
+    /*
+    Returns the ids of objects in the top-k for at least tau of [startTime, endTime], using the fastest
+    algorithm whose durability error bound is at most tolerance (0 demands an exact algorithm).
+     */
+    public List<Integer> query(int k, int startTime, int endTime, double tau, double tolerance) {
+        Plan plan = plan(k, startTime, endTime, tau, tolerance);
+        queriesSeen++;
+        long start = System.nanoTime();
+        List<Integer> result = plan.execution.get();
+        recordObservation(plan, System.nanoTime() - start);
+        lastPlan = plan;
+        return result;
+    }
+
+    public Plan plan(int k, int startTime, int endTime, double tau, double tolerance) {
+        List<Plan> candidates = candidates(k, startTime, endTime, tau, tolerance);
+        Plan best = null;
+        for (Plan candidate : candidates) {
+            if (candidate.errorBound <= tolerance && (best == null || candidate.estimatedNanos < best.estimatedNanos)) {
+                best = candidate;
+            }
+        }
+        // PrefixSum is exact for any valid interval, so some candidate always qualifies
+        return best;
+    }
+
+    public Plan getLastPlan() {
+        return lastPlan;
+    }
+
+    /*
+    Current nanoseconds-per-work-unit factor for each algorithm that has been executed at least once.
+     */
+    public Map<String, Double> getCostFactors() {
+        return new TreeMap<>(nanosPerUnit);
+    }
+
+    private List<Plan> candidates(int k, int startTime, int endTime, double tau, double tolerance) {
+        if (k <= 0 || startTime < 1 || endTime > totalTime || startTime > endTime || tau < 0 || tau > 1 || tolerance < 0) {
+            throw new IllegalArgumentException("Invalid query parameters!!");
+        }
+        int window = endTime - startTime + 1;
+        boolean fullRange = startTime == 1 && endTime == totalTime;
+        boolean kIndexed = indexedKs.contains(k);
+        double snapshotSort = totalTime * sortCostPerSnapshot;
+        long sumKs = 0;
+        for (int idxK : indexedKs) {
+            sumKs += idxK;
+        }
+        List<Plan> plans = new ArrayList<>();
+
+        boolean prefixBuilt = prefixByK.containsKey(k);
+        double prefixBuild = totalEntries + snapshotSort + (double) Math.min(numObjects, (long) totalTime * k) * totalTime;
+        plans.add(plan("PrefixSum", prefixBuilt ? 0 : prefixBuild, numObjects, 0.0, () ->
+                prefixByK.computeIfAbsent(k, x -> new PrefixSumDurableTopK(objects, k, 1, totalTime))
+                        .query(startTime, endTime, tau)));
+
+        boolean intervalBuilt = intervalByK.containsKey(k);
+        plans.add(plan("IntervalIndex", intervalBuilt ? 0 : totalEntries + snapshotSort, (double) totalTime * k, 0.0, () ->
+                intervalByK.computeIfAbsent(k, x -> new IntervalIndexDurableTopK(objects, k))
+                        .query(startTime, endTime, tau)));
+
+        boolean geometricBuilt = geometricByK.containsKey(k);
+        plans.add(plan("Geometric", geometricBuilt ? 0 : totalEntries, window * sortCostPerSnapshot, 0.0, () ->
+                geometricByK.computeIfAbsent(k, x -> new GeometricDurableTopK(objects, k))
+                        .query(startTime, endTime, tau)));
+
+        if (tolerance > 0) {
+            // Hoeffding per object plus a union bound over all n objects: s = ln(2n / delta) / (2 * tolerance^2)
+            int sampleSize = (int) Math.ceil(Math.log(2.0 * numObjects / SAMPLING_CONFIDENCE_DELTA) / (2 * tolerance * tolerance));
+            // Sampling only pays off when it touches fewer timestamps than the window itself
+            if (sampleSize < window) {
+                boolean samplingBuilt = sampling != null;
+                plans.add(plan("Sampling", samplingBuilt ? 0 : totalEntries, sampleSize * sortCostPerSnapshot, tolerance, () -> {
+                    if (sampling == null) {
+                        sampling = new SamplingDurableTopK(objects);
+                    }
+                    return sampling.query(k, startTime, endTime, tau, sampleSize);
+                }));
+            }
+        }
+
+        boolean obliviousBuilt = oblivious != null;
+        plans.add(plan("ObliviousIndex", obliviousBuilt ? 0 : totalEntries + indexedKs.size() * snapshotSort,
+                (double) window * k, kIndexed ? 0.0 : UNBOUNDED_ERROR, () -> {
+            if (oblivious == null) {
+                oblivious = new ObliviousIndexDurableTopK(objects, indexedKs);
+            }
+            return oblivious.query(k, startTime, endTime, tau);
+        }));
+
+        // Column and cell-wise indexes only hold whole-history counts, so they answer full-range queries only
+        if (fullRange) {
+            boolean columnBuilt = column != null;
+            plans.add(plan("ColumnIndex", columnBuilt ? 0 : totalEntries + snapshotSort + (double) totalTime * sumKs,
+                    numObjects, kIndexed ? 0.0 : UNBOUNDED_ERROR, () -> {
+                if (column == null) {
+                    column = new ColumnIndexDurableTopK(objects, indexedKs, totalTime);
+                }
+                return column.query(k, tau);
+            }));
+
+            // Cell-wise answers come from neighbouring-cell estimates with no proven bound, even at an indexed k
+            boolean cellWiseBuilt = cellWise != null;
+            plans.add(plan("CellWiseIndex", cellWiseBuilt ? 0 : totalEntries + snapshotSort
+                    + (double) totalTime * sumKs + 50.0 * numObjects * indexedKs.size(),
+                    numObjects, UNBOUNDED_ERROR, () -> {
+                if (cellWise == null) {
+                    cellWise = new CellWiseIndexDurableTopK(objects, new ArrayList<>(indexedKs), totalTime);
+                }
+                return cellWise.query(k, tau);
+            }));
+        }
+        return plans;
+    }
+
+    private Plan plan(String algorithm, double buildUnits, double queryUnits, double errorBound, Supplier<List<Integer>> execution) {
+        return new Plan(algorithm, buildUnits, queryUnits, Math.max(1, queriesSeen),
+                nanosPerUnit.getOrDefault(algorithm, defaultNanosPerUnit()), errorBound, execution);
+    }
+
+    // Untried algorithms are priced at the average observed rate so they compete on work units alone
+    private double defaultNanosPerUnit() {
+        if (nanosPerUnit.isEmpty()) return 1.0;
+        double sum = 0;
+        for (double factor : nanosPerUnit.values()) {
+            sum += factor;
+        }
+        return sum / nanosPerUnit.size();
+    }
+
+    private void recordObservation(Plan plan, long observedNanos) {
+        double observed = observedNanos / Math.max(1.0, plan.units);
+        Double current = nanosPerUnit.get(plan.algorithm);
+        nanosPerUnit.put(plan.algorithm, current == null ? observed : (1 - LEARNING_RATE) * current + LEARNING_RATE * observed);
+    }
+}
@@ -16,6 +16,9 @@ public class FixedKRun {
             runAllAlgorithms("EVAL", path, false, true);
         }
         ResultsLogger.exportCSV("results_summary.csv");
+        for (Map<String, Object> row : DurableTopKMetrics.snapshotAll()) {
+            System.out.println(row);
+        }
     }
 
     public static void runAllAlgorithms(String mode, String filePath, boolean printResults, boolean timeIt) throws Exception {
@@ -75,6 +78,29 @@ public class FixedKRun {
             CellWiseIndexDurableTopK cel = new CellWiseIndexDurableTopK(objects, indexedKs, totalTime);
             return cel.query(k, tau).stream().limit(k).toList();
         }, printResults);
+
+        runWithMetrics("StreamingSketch", timeIt, () -> {
+            // Twice the worst-case k / tau keeps errorBound(k) at most tau / 2, below tau as the guarantee requires
+            int capacity = (int) Math.ceil(2 * Collections.max(indexedKs) / tau);
+            StreamingSketchDurableTopK sketch = StreamingSketchDurableTopK.tumbling(indexedKs, capacity, totalTime);
+            sketch.addAll(objects);
+            return sketch.query(k, tau).stream().limit(k).toList();
+        }, printResults);
+
+        runWithMetrics("Planner", timeIt, () -> {
+            DurableTopKPlanner planner = new DurableTopKPlanner(objects, indexedKs, totalTime);
+            List<Integer> result = planner.query(k, startTime, endTime, tau, 0.0);
+            System.out.println("Planner chose " + planner.getLastPlan());
+            return result.stream().limit(k).toList();
+        }, printResults);
+
+        runWithMetrics("Sharded", timeIt, () -> {
+            try (ShardedDurableTopK sharded = new ShardedDurableTopK(filePath, 4)) {
+                return sharded.query(k, startTime, endTime, tau).stream().limit(k).toList();
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }, printResults);
     }
 
     public static void runWithMetrics(String name, boolean timeIt, Supplier<List<Integer>> method, boolean printResult) {
@@ -2,27 +2,36 @@ package durabletopk;
 import java.util.*;
  
 public class GeometricDurableTopK {
+    private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("Geometric");
     private TreeMap<Integer, List<TemporalObject>> timeIndex;
     private int k;
  
     public GeometricDurableTopK(List<TemporalObject> objects, int k) {
         this.k = k;
         this.timeIndex = new TreeMap<>();
+        long phaseStart = System.nanoTime();
+        long entries = 0;
  
         for (TemporalObject obj : objects) {
             for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
                  int time = entry.getKey();
                  timeIndex.computeIfAbsent(time, t -> new ArrayList<>()).add(obj);
+                 entries++;
             }
         }
+        metrics.recordPhase("grouping", System.nanoTime() - phaseStart);
+        metrics.setIndexBytes(4L * entries);
     }
     
     public List<Integer> query(int startTime, int endTime, double tau) {
+        long queryStart = System.nanoTime();
         Map<Integer, Integer> countMap = new HashMap<>();
         int duration = endTime - startTime + 1;
+        long scanned = 0;
         for (int t = startTime; t <= endTime; t++) {
             final int currentTime = t;
             List<TemporalObject> snapshot = timeIndex.getOrDefault(currentTime, new ArrayList<>());
+            scanned += snapshot.size();
             snapshot.sort((o1, o2) -> Double.compare(o2.getValueAt(currentTime), o1.getValueAt(currentTime)));
              for (int i = 0; i < Math.min(k, snapshot.size()); i++) {
                  int id = snapshot.get(i).id;
@@ -33,6 +42,7 @@ public class GeometricDurableTopK {
         for (Map.Entry<Integer, Integer> entry : countMap.entrySet()) {
             if ((double) entry.getValue() / duration >= tau) { result.add(entry.getKey());}
         }
+        metrics.recordQuery(System.nanoTime() - queryStart, scanned, result.size(), duration);
         return result;
     }
 }
@@ -2,10 +2,12 @@ package durabletopk;
 import java.util.*;
  
 public class IntervalIndexDurableTopK {
+    private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("IntervalIndex");
     private Map<Integer, List<Integer>> topKTimes;
  
     public IntervalIndexDurableTopK(List<TemporalObject> objects, int k) {
         topKTimes = new HashMap<>();
+        long phaseStart = System.nanoTime();
         TreeMap<Integer, List<TemporalObject>> timeMap = new TreeMap<>();
         for (TemporalObject obj : objects) {
             for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
@@ -13,18 +15,31 @@ public class IntervalIndexDurableTopK {
                 timeMap.computeIfAbsent(t, x -> new ArrayList<>()).add(obj);
             }
         }
+        metrics.recordPhase("grouping", System.nanoTime() - phaseStart);
+        long sortNanos = 0;
+        long countNanos = 0;
+        long postings = 0;
         for (Map.Entry<Integer, List<TemporalObject>> entry : timeMap.entrySet()) {
             final int currentTime = entry.getKey();
             List<TemporalObject> snapshot = entry.getValue();
+            long sortStart = System.nanoTime();
             snapshot.sort((a, b) -> Double.compare(b.getValueAt(currentTime), a.getValueAt(currentTime)));
+            long countStart = System.nanoTime();
+            sortNanos += countStart - sortStart;
             for (int i = 0; i < Math.min(k, snapshot.size()); i++) {
                 int id = snapshot.get(i).id;
                  topKTimes.computeIfAbsent(id, x -> new ArrayList<>()).add(currentTime);
+                 postings++;
              }
+            countNanos += System.nanoTime() - countStart;
             }
+        metrics.recordPhase("sorting", sortNanos);
+        metrics.recordPhase("counting", countNanos);
+        metrics.setIndexBytes(4L * postings);
         }
  
     public List<Integer> query(int startTime, int endTime, double tau) {
+        long queryStart = System.nanoTime();
         List<Integer> result = new ArrayList<>();
         int duration = endTime - startTime + 1;
         for (Map.Entry<Integer, List<Integer>> entry : topKTimes.entrySet()) {
@@ -36,6 +51,7 @@ public class IntervalIndexDurableTopK {
             }
             if ((double) count / duration >= tau) { result.add(entry.getKey());}
         }
+        metrics.recordQuery(System.nanoTime() - queryStart, topKTimes.size(), result.size(), duration);
         return result;
     }
 }
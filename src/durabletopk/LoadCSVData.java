@@ -2,9 +2,15 @@ package durabletopk;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.IntPredicate;
 
 public class LoadCSVData {
     public static List<TemporalObject> loadFromCSV(String filePath) throws IOException {
+        return loadFromCSV(filePath, id -> true);
+    }
+
+    // Loads only the rows whose object id passes the filter, so a shard never holds the full dataset
+    public static List<TemporalObject> loadFromCSV(String filePath, IntPredicate idFilter) throws IOException {
         BufferedReader reader = new BufferedReader(new FileReader(filePath));
         String line = reader.readLine();
         Map<Integer, TemporalObject> objectMap = new HashMap<>();
@@ -12,6 +18,7 @@ public class LoadCSVData {
         while ((line = reader.readLine()) != null) {
             String[] tokens = line.split(",");
             int id = Integer.parseInt(tokens[0]);
+            if (!idFilter.test(id)) continue;
             int time = Integer.parseInt(tokens[1]);
             double value = Double.parseDouble(tokens[2]);
             objectMap.putIfAbsent(id, new TemporalObject(id));
@@ -21,4 +28,23 @@ public class LoadCSVData {
         reader.close();
         return new ArrayList<>(objectMap.values());
     }
+
+    // Reads the (int id, int time, double value) records written by SyntheticDataGenerator.writeBinary
+    public static List<TemporalObject> loadFromBinary(String filePath) throws IOException {
+        Map<Integer, TemporalObject> objectMap = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)))) {
+            while (true) {
+                int id;
+                try {
+                    id = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int time = in.readInt();
+                double value = in.readDouble();
+                objectMap.computeIfAbsent(id, TemporalObject::new).addValue(time, value);
+            }
+        }
+        return new ArrayList<>(objectMap.values());
+    }
 }
\ No newline at end of file
@@ -3,41 +3,61 @@ package durabletopk;
 import java.util.*;
  
 public class ObliviousIndexDurableTopK {
+     private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("ObliviousIndex");
      private Map<Integer, Map<Integer, List<Integer>>> topKAtTime;
      private List<Integer> indexedKs;
  
      public ObliviousIndexDurableTopK(List<TemporalObject> objects, List<Integer> ks) {
          this.topKAtTime = new HashMap<>();
          this.indexedKs = ks;
+         long phaseStart = System.nanoTime();
          TreeMap<Integer, List<TemporalObject>> timeIndex = new TreeMap<>();
          for (TemporalObject obj : objects) {
              for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
                  timeIndex.computeIfAbsent(entry.getKey(), x -> new ArrayList<>()).add(obj);
              }
          }
+         metrics.recordPhase("grouping", System.nanoTime() - phaseStart);
+         long sortNanos = 0;
+         long countNanos = 0;
+         long postings = 0;
          for (int k : ks) {
              Map<Integer, List<Integer>> timeToTopK = new HashMap<>();
              for (int time : timeIndex.keySet()) {
                  final int currentTime = time;
                  List<TemporalObject> snapshot = timeIndex.get(currentTime);
+                 long sortStart = System.nanoTime();
                  snapshot.sort((a, b) -> Double.compare(b.getValueAt(currentTime), a.getValueAt(currentTime)));
+                 long countStart = System.nanoTime();
+                 sortNanos += countStart - sortStart;
                  List<Integer> topKList = new ArrayList<>();
                  for (int i = 0; i < Math.min(k, snapshot.size()); i++) {
                      topKList.add(snapshot.get(i).id);
                  }
                  timeToTopK.put(time, topKList);
+                 postings += topKList.size();
+                 countNanos += System.nanoTime() - countStart;
              }
              topKAtTime.put(k, timeToTopK);
          }
+         metrics.recordPhase("sorting", sortNanos);
+         metrics.recordPhase("counting", countNanos);
+         metrics.setIndexBytes(4L * postings);
      }
  
      public List<Integer> query(int k, int startTime, int endTime, double tau) {
+         long queryStart = System.nanoTime();
          int nearestK = findClosestIndexedK(k);
+         if (nearestK == k) {
+             metrics.recordCacheHit();
+         }
          Map<Integer, List<Integer>> topKTimes = topKAtTime.get(nearestK);
          Map<Integer, Integer> count = new HashMap<>();
          int duration = endTime - startTime + 1;
+         long scanned = 0;
          for (int t = startTime; t <= endTime; t++) {
              List<Integer> topKList = topKTimes.getOrDefault(t, Collections.emptyList());
+             scanned += topKList.size();
              for (int id : topKList) {
                  count.put(id, count.getOrDefault(id, 0) + 1);
              }
@@ -48,6 +68,7 @@ public class ObliviousIndexDurableTopK {
                  result.add(entry.getKey());
              }
          }
+         metrics.recordQuery(System.nanoTime() - queryStart, scanned, result.size(), duration);
          return result;
      }
  
@@ -2,9 +2,11 @@ package durabletopk;
 import java.util.*;
  
 public class PrefixSumDurableTopK {
+    private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("PrefixSum");
     private final Map<Integer, int[]> prefixMap = new HashMap<>();
  
     public PrefixSumDurableTopK(List<TemporalObject> objects, int k, int startTime, int endTime) {
+        long phaseStart = System.nanoTime();
         TreeMap<Integer, List<TemporalObject>> timeMap = new TreeMap<>();
         Map<Integer, int[]> counts = new HashMap<>();
         for (TemporalObject obj : objects) {
@@ -14,15 +16,25 @@ public class PrefixSumDurableTopK {
                     timeMap.computeIfAbsent(t, x -> new ArrayList<>()).add(obj);}
             }
          }
+        metrics.recordPhase("grouping", System.nanoTime() - phaseStart);
+        long sortNanos = 0;
+        long countNanos = 0;
         for (int t = startTime; t <= endTime; t++) {
             final int currentTime = t;
             List<TemporalObject> snapshot = timeMap.getOrDefault(currentTime, new ArrayList<>());
+            long sortStart = System.nanoTime();
             snapshot.sort((a, b) -> Double.compare(b.getValueAt(currentTime), a.getValueAt(currentTime)));
+            long countStart = System.nanoTime();
+            sortNanos += countStart - sortStart;
             for (int i = 0; i < Math.min(k, snapshot.size()); i++) {
                 int id = snapshot.get(i).id;
                 counts.computeIfAbsent(id, x -> new int[endTime + 2])[currentTime]++;
             }
+            countNanos += System.nanoTime() - countStart;
         }
+        metrics.recordPhase("sorting", sortNanos);
+        metrics.recordPhase("counting", countNanos);
+        phaseStart = System.nanoTime();
         for (Map.Entry<Integer, int[]> entry : counts.entrySet()) {
             int[] p = entry.getValue();
             for (int i = startTime + 1; i <= endTime; i++) {
@@ -30,9 +42,12 @@ public class PrefixSumDurableTopK {
             }
             prefixMap.put(entry.getKey(), p);
         }
+        metrics.recordPhase("prefixSum", System.nanoTime() - phaseStart);
+        metrics.setIndexBytes(4L * (endTime + 2) * prefixMap.size());
     }
  
     public List<Integer> query(int startTime, int endTime, double tau) {
+        long queryStart = System.nanoTime();
         List<Integer> result = new ArrayList<>();
         int duration = endTime - startTime + 1;
         for (Map.Entry<Integer, int[]> entry : prefixMap.entrySet()) {
@@ -42,5 +57,6 @@ public class PrefixSumDurableTopK {
                 result.add(entry.getKey());
             }
         }
+        metrics.recordQuery(System.nanoTime() - queryStart, prefixMap.size(), result.size(), duration);
         return result;}
 }
\ No newline at end of file
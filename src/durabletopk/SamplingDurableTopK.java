@@ -2,17 +2,24 @@ package durabletopk;
 import java.util.*;
  
 public class SamplingDurableTopK {
+ private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("Sampling");
  private TreeMap<Integer, List<TemporalObject>> index;
      public SamplingDurableTopK(List<TemporalObject> objects) {
          index = new TreeMap<>();
+         long phaseStart = System.nanoTime();
+         long entries = 0;
          for (TemporalObject obj : objects) {
              for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
                  int time = entry.getKey();
                  index.computeIfAbsent(time, x -> new ArrayList<>()).add(obj);
+                 entries++;
              }
          }
+         metrics.recordPhase("grouping", System.nanoTime() - phaseStart);
+         metrics.setIndexBytes(4L * entries);
      }
      public List<Integer> query(int k, int startTime, int endTime, double tau, int sampleSize) {
+         long queryStart = System.nanoTime();
          Random rand = new Random();
          List<Integer> sampledTimes = new ArrayList<>();
          for (int i = 0; i < sampleSize; i++) {
@@ -20,8 +27,10 @@ public class SamplingDurableTopK {
              sampledTimes.add(t);
          }
          Map<Integer, Integer> countMap = new HashMap<>();
+         long scanned = 0;
          for (int t : sampledTimes) {
              List<TemporalObject> snapshot = index.getOrDefault(t, Collections.emptyList());
+             scanned += snapshot.size();
              snapshot.sort((a, b) -> Double.compare(b.getValueAt(t), a.getValueAt(t)));
              for (int i = 0; i < Math.min(k, snapshot.size()); i++) {
                  int id = snapshot.get(i).id;
@@ -35,6 +44,7 @@ public class SamplingDurableTopK {
                  result.add(entry.getKey());
              }
             }
+         metrics.recordQuery(System.nanoTime() - queryStart, scanned, result.size(), sampledTimes.size());
         return result;
      }
  }
\ No newline at end of file
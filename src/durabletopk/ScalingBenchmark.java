@@ -0,0 +1,371 @@
+package durabletopk;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ Sweeps object count and timestamp count over synthetic data and measures every DurableTopK class:
+ build time, mean query latency, retained heap, estimated index bytes and F1 against the exact answer.
+ Each measurement runs in its own child JVM, which is killed once build plus queries exceed budgetMs, so an
+ over-budget run never competes with later ones and every heap figure starts from a clean heap.
+ The heap figure is a GC-based delta and can be off by a few MB; the index bytes column comes from DurableTopKMetrics.
+ Once an algorithm times out or runs out of memory at (n, T) it is skipped for every configuration with at least
+ n objects and at least T timestamps, which marks where it falls over.
+ Arguments are key=value pairs, e.g. objects=100,1000 timestamps=500,2000 model=BURSTY sparsity=0.2 seed=7 budgetMs=30000
+ */
+public class ScalingBenchmark {
+    private static final List<String> headers = Arrays.asList(
+        "Objects", "Timestamps", "Algorithm", "Build(ms)", "QueryMean(ms)", "MemoryUsed(MB)", "IndexBytes(MB)", "F1_vs_Exact", "Status"
+    );
+    private static final Set<String> exactAlgorithms = new HashSet<>(Arrays.asList("PrefixSum", "IntervalIndex", "Geometric", "Sharded"));
+    private static final int QUERY_REPS = 3;
+    private static final int SHARDS = 4;
+    private static final int WARMUP_OBJECTS = 50;
+    private static final int K = 10;
+    private static final double TAU = 0.05;
+    private static final List<Integer> INDEXED_KS = Arrays.asList(5, 10, 15, 20);
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length != 2) {
+                System.err.println("Ignoring malformed argument: " + arg);
+                continue;
+            }
+            options.put(kv[0], kv[1]);
+        }
+        if (options.containsKey("measure")) {
+            measureInChild(options.get("measure"), options.get("data"), Integer.parseInt(options.get("timestamps")));
+            return;
+        }
+        int[] objectCounts = parseInts(options.getOrDefault("objects", "100,1000,5000"));
+        int[] timestampCounts = parseInts(options.getOrDefault("timestamps", "500,2000"));
+        SyntheticDataGenerator.Model model = SyntheticDataGenerator.Model.valueOf(options.getOrDefault("model", "AR1").toUpperCase());
+        double sparsity = Double.parseDouble(options.getOrDefault("sparsity", "0.0"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        long budgetMs = Long.parseLong(options.getOrDefault("budgetMs", "60000"));
+        String output = options.getOrDefault("out", "scaling_results.csv");
+
+        List<int[]> configs = new ArrayList<>();
+        for (int n : objectCounts) {
+            for (int t : timestampCounts) {
+                configs.add(new int[]{n, t});
+            }
+        }
+        configs.sort(Comparator.comparingLong(c -> (long) c[0] * c[1]));
+
+        List<Map<String, Object>> records = new ArrayList<>();
+        Map<String, List<Failure>> fallenOver = new HashMap<>();
+        ExecutorService lineReader = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "scaling-benchmark-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Rows measured so far are written even if the sweep dies part-way
+        try {
+            for (int[] config : configs) {
+                int n = config[0];
+                int totalTime = config[1];
+                System.out.println("\n>>> " + model + " objects=" + n + " timestamps=" + totalTime + " sparsity=" + sparsity);
+                File data;
+                try {
+                    data = Files.createTempFile("scaling-" + n + "x" + totalTime + "-", ".csv").toFile();
+                    data.deleteOnExit();
+                    new SyntheticDataGenerator(model, n, totalTime, sparsity, seed).writeCSV(data.getPath());
+                } catch (IOException e) {
+                    System.err.println("Could not write dataset: " + e.getMessage() + "; stopping sweep.");
+                    break;
+                }
+
+                Set<Integer> exact = null;
+                for (String name : algorithms(totalTime, data.getPath()).keySet()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("Objects", n);
+                    row.put("Timestamps", totalTime);
+                    row.put("Algorithm", name);
+                    records.add(row);
+                    Failure dominated = findDominatingFailure(fallenOver.get(name), n, totalTime);
+                    if (dominated != null) {
+                        row.put("Status", "SKIPPED(" + dominated + ")");
+                        System.out.println(name + " skipped after " + dominated);
+                        continue;
+                    }
+                    Measurement m = runChild(lineReader, name, data.getPath(), totalTime, budgetMs);
+                    row.put("Status", m.status);
+                    if (!m.status.equals("OK")) {
+                        if (m.status.equals("OVER_BUDGET") || m.status.equals("OOM")) {
+                            fallenOver.computeIfAbsent(name, x -> new ArrayList<>()).add(new Failure(m.status, n, totalTime));
+                        }
+                        System.out.println(name + ": " + m.status);
+                        continue;
+                    }
+                    if (exact == null && exactAlgorithms.contains(name)) {
+                        exact = new HashSet<>(m.result);
+                    }
+                    row.put("Build(ms)", String.format("%.2f", m.buildMs));
+                    row.put("QueryMean(ms)", String.format("%.3f", m.queryMs));
+                    row.put("MemoryUsed(MB)", m.memoryBytes < 0 ? "n/a" : String.format("%.2f", m.memoryBytes / (1024.0 * 1024.0)));
+                    row.put("IndexBytes(MB)", m.indexBytes < 0 ? "n/a" : String.format("%.2f", m.indexBytes / (1024.0 * 1024.0)));
+                    row.put("F1_vs_Exact", exact == null ? "n/a" : String.format("%.2f", f1(m.result, exact)));
+                    System.out.println(name + ": build " + row.get("Build(ms)") + " ms, query " + row.get("QueryMean(ms)")
+                            + " ms, memory " + row.get("MemoryUsed(MB)") + " MB, index " + row.get("IndexBytes(MB)") + " MB, F1 " + row.get("F1_vs_Exact"));
+                }
+                data.delete();
+            }
+        } finally {
+            lineReader.shutdownNow();
+            exportCSV(output, records);
+        }
+    }
+
+    /*
+    Every measured algorithm by name. Sharded reads the CSV at dataPath itself, since its workers load their own partitions.
+     */
+    private static Map<String, Function<List<TemporalObject>, Supplier<List<Integer>>>> algorithms(int totalTime, String dataPath) {
+        Map<String, Function<List<TemporalObject>, Supplier<List<Integer>>>> algorithms = new LinkedHashMap<>();
+        algorithms.put("PrefixSum", objs -> {
+            PrefixSumDurableTopK prefix = new PrefixSumDurableTopK(objs, K, 1, totalTime);
+            return () -> prefix.query(1, totalTime, TAU);
+        });
+        algorithms.put("IntervalIndex", objs -> {
+            IntervalIndexDurableTopK interval = new IntervalIndexDurableTopK(objs, K);
+            return () -> interval.query(1, totalTime, TAU);
+        });
+        algorithms.put("Geometric", objs -> {
+            GeometricDurableTopK geometric = new GeometricDurableTopK(objs, K);
+            return () -> geometric.query(1, totalTime, TAU);
+        });
+        algorithms.put("Sampling", objs -> {
+            SamplingDurableTopK sampling = new SamplingDurableTopK(objs);
+            return () -> sampling.query(K, 1, totalTime, TAU, 20);
+        });
+        algorithms.put("ObliviousIndex", objs -> {
+            ObliviousIndexDurableTopK dos = new ObliviousIndexDurableTopK(objs, INDEXED_KS);
+            return () -> dos.query(K, 1, totalTime, TAU);
+        });
+        algorithms.put("ColumnIndex", objs -> {
+            ColumnIndexDurableTopK col = new ColumnIndexDurableTopK(objs, INDEXED_KS, totalTime);
+            return () -> col.query(K, TAU);
+        });
+        algorithms.put("CellWiseIndex", objs -> {
+            CellWiseIndexDurableTopK cel = new CellWiseIndexDurableTopK(objs, new ArrayList<>(INDEXED_KS), totalTime);
+            return () -> cel.query(K, TAU);
+        });
+        // Workers exit when the child JVM does and their sockets close
+        algorithms.put("Sharded", objs -> {
+            try {
+                ShardedDurableTopK sharded = new ShardedDurableTopK(dataPath, SHARDS);
+                return () -> sharded.query(K, 1, totalTime, TAU);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return algorithms;
+    }
+
+    private static class Measurement {
+        String status = "OK";
+        double buildMs;
+        double queryMs;
+        long memoryBytes;
+        long indexBytes;
+        List<Integer> result = new ArrayList<>();
+    }
+
+    private static class Failure {
+        final String reason;
+        final int objects;
+        final int timestamps;
+
+        Failure(String reason, int objects, int timestamps) {
+            this.reason = reason;
+            this.objects = objects;
+            this.timestamps = timestamps;
+        }
+
+        @Override
+        public String toString() {
+            return reason + " at n=" + objects + ",T=" + timestamps;
+        }
+    }
+
+    /*
+    A configuration is only skipped when it is at least as large as an earlier failure in both dimensions;
+    more objects but fewer timestamps can still be cheaper, so it is measured.
+     */
+    private static Failure findDominatingFailure(List<Failure> failures, int n, int totalTime) {
+        if (failures == null) return null;
+        for (Failure failure : failures) {
+            if (n >= failure.objects && totalTime >= failure.timestamps) {
+                return failure;
+            }
+        }
+        return null;
+    }
+
+    /*
+    Launches a child JVM on the current classpath and heap settings to measure one algorithm. The budget clock starts
+    once the child has loaded the dataset and covers build plus query reps; on timeout the child and any processes
+    it started (e.g. shard workers) are killed.
+     */
+    private static Measurement runChild(ExecutorService lineReader, String name, String dataPath, int totalTime, long budgetMs) {
+        Measurement m = new Measurement();
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String jvmArg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (jvmArg.startsWith("-X")) {
+                command.add(jvmArg);
+            }
+        }
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), ScalingBenchmark.class.getName(),
+                "measure=" + name, "data=" + dataPath, "timestamps=" + totalTime));
+        Process child = null;
+        try {
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            child = builder.start();
+            BufferedReader in = new BufferedReader(new InputStreamReader(child.getInputStream()));
+            String line = readLine(lineReader, in, Long.MAX_VALUE);
+            if ("READY".equals(line)) {
+                line = readLine(lineReader, in, budgetMs);
+                if (line != null && line.startsWith("TIMED ")) {
+                    String[] timed = line.split(" ");
+                    m.buildMs = Double.parseDouble(timed[1]);
+                    m.queryMs = Double.parseDouble(timed[2]);
+                    String[] memory = readLine(lineReader, in, Long.MAX_VALUE).split(" ");
+                    m.memoryBytes = Long.parseLong(memory[1]);
+                    m.indexBytes = Long.parseLong(memory[2]);
+                    line = readLine(lineReader, in, Long.MAX_VALUE);
+                    for (String id : line.substring("RESULT".length()).trim().split(",")) {
+                        if (!id.isEmpty()) m.result.add(Integer.parseInt(id));
+                    }
+                    return m;
+                }
+            }
+            m.status = line == null ? "FAILED(exit " + child.waitFor() + ")" : line.startsWith("OOM") ? "OOM" : "FAILED";
+        } catch (TimeoutException e) {
+            m.status = "OVER_BUDGET";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            m.status = "FAILED(interrupted)";
+        } catch (IOException | RuntimeException e) {
+            m.status = "FAILED(" + e.getClass().getSimpleName() + ")";
+        } finally {
+            if (child != null) {
+                child.descendants().forEach(ProcessHandle::destroyForcibly);
+                child.destroyForcibly();
+            }
+        }
+        return m;
+    }
+
+    // readLine cannot time out by itself, so wait for it on another thread; killing the child unblocks that thread
+    private static String readLine(ExecutorService lineReader, BufferedReader in, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        Future<String> line = lineReader.submit(in::readLine);
+        try {
+            return line.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /*
+    Child side: loads the dataset, then builds and queries one algorithm and reports over stdout.
+    The heap is sampled with the index reachable and again after dropping it, so the difference is the retained
+    size of that index alone; those GC pauses come after the TIMED line and do not count against the budget.
+     */
+    private static void measureInChild(String name, String dataPath, int totalTime) {
+        PrintStream protocol = System.out;
+        // Algorithms may print; keep stdout for the protocol lines the parent parses
+        System.setOut(System.err);
+        try {
+            Function<List<TemporalObject>, Supplier<List<Integer>>> builder = algorithms(totalTime, dataPath).get(name);
+            List<TemporalObject> objects = LoadCSVData.loadFromCSV(dataPath);
+            // A fresh JVM is cold; one untimed run on a slice of the data keeps JIT compilation out of the build time
+            if (!name.equals("Sharded")) {
+                builder.apply(objects.subList(0, Math.min(WARMUP_OBJECTS, objects.size()))).get();
+            }
+            usedMemoryAfterGC();
+            protocol.println("READY");
+            protocol.flush();
+            long buildStart = System.nanoTime();
+            Supplier<List<Integer>> query = builder.apply(objects);
+            long buildNanos = System.nanoTime() - buildStart;
+            long queryNanos = 0;
+            List<Integer> result = null;
+            for (int rep = 0; rep < QUERY_REPS; rep++) {
+                long queryStart = System.nanoTime();
+                result = query.get();
+                queryNanos += System.nanoTime() - queryStart;
+            }
+            protocol.println("TIMED " + buildNanos / 1_000_000.0 + " " + queryNanos / 1_000_000.0 / QUERY_REPS);
+            protocol.flush();
+            long withIndex = usedMemoryAfterGC();
+            Reference.reachabilityFence(query);
+            query = null;
+            // Sharded keeps its index in the worker processes, so neither heap figure applies
+            boolean local = !name.equals("Sharded");
+            long memoryBytes = local ? Math.max(0, withIndex - usedMemoryAfterGC()) : -1;
+            long indexBytes = local ? DurableTopKMetrics.forAlgorithm(name).getIndexBytes() : -1;
+            protocol.println("MEMORY " + memoryBytes + " " + indexBytes);
+            StringJoiner ids = new StringJoiner(",");
+            for (int id : result) {
+                ids.add(String.valueOf(id));
+            }
+            protocol.println("RESULT " + ids);
+        } catch (OutOfMemoryError e) {
+            protocol.println("OOM");
+        } catch (Exception e) {
+            protocol.println("FAILED");
+            e.printStackTrace();
+        }
+        protocol.flush();
+        System.exit(0);
+    }
+
+    private static double f1(List<Integer> result, Set<Integer> exact) {
+        Set<Integer> current = new HashSet<>(result);
+        // Agreeing that nothing is durable is a perfect answer, e.g. heavy-tailed data with many objects
+        if (current.isEmpty() && exact.isEmpty()) return 1.0;
+        double truePositives = current.stream().filter(exact::contains).count();
+        double precision = current.isEmpty() ? 0.0 : truePositives / current.size();
+        double recall = exact.isEmpty() ? 0.0 : truePositives / exact.size();
+        return (precision + recall > 0) ? 2 * (precision * recall) / (precision + recall) : 0.0;
+    }
+
+    private static long usedMemoryAfterGC() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 2; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static int[] parseInts(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static void exportCSV(String filename, List<Map<String, Object>> records) {
+        try (FileWriter writer = new FileWriter(filename)) {
+            writer.write(String.join(",", headers) + "\n");
+            for (Map<String, Object> row : records) {
+                List<String> cells = new ArrayList<>();
+                for (String header : headers) {
+                    cells.add(row.getOrDefault(header, "").toString());
+                }
+                writer.write(String.join(",", cells) + "\n");
+            }
+            System.out.println("Exported scaling results to " + filename);
+        } catch (IOException e) {
+            System.err.println("Failed to write scaling CSV: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package durabletopk;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+/**
+ Worker process for sharded execution. Owns the objects whose id hashes to its shard and answers
+ requests from a ShardedDurableTopK coordinator over a loopback socket.
+ */
+public class ShardWorker {
+    static final int CMD_TOPK_VALUES = 1;
+    static final int CMD_COUNT = 2;
+    static final int CMD_SHUTDOWN = 3;
+
+    /*
+    Rank order shared by workers and coordinator: higher value first, ties to the smaller id, so exactly k objects
+    are top-k per timestamp. This matches the stable value sorts of the single-JVM indexes over id-ordered input.
+     */
+    static final Comparator<Map.Entry<Integer, Double>> RANK_ORDER =
+            Map.Entry.<Integer, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final List<TemporalObject> partition;
+
+    public ShardWorker(List<TemporalObject> objects, int shardId, int numShards) {
+        if (numShards <= 0 || shardId < 0 || shardId >= numShards) {
+            throw new IllegalArgumentException("Invalid shard " + shardId + " of " + numShards);
+        }
+        this.partition = new ArrayList<>();
+        for (TemporalObject obj : objects) {
+            if (shardOf(obj.id, numShards) == shardId) {
+                partition.add(obj);
+            }
+        }
+    }
+
+    /*
+    Hash partition used by both the coordinator and the workers to assign object ids to shards.
+    Fibonacci hashing spreads strided ids (e.g. all multiples of numShards) across every shard.
+     */
+    public static int shardOf(int objectId, int numShards) {
+        int h = objectId * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), numShards);
+    }
+
+    /*
+    Returns, for every timestamp in [startTime, endTime], the local top-k (id, value) pairs in RANK_ORDER.
+     */
+    public List<List<Map.Entry<Integer, Double>>> localTopK(int k, int startTime, int endTime) {
+        List<List<Map.Entry<Integer, Double>>> result = new ArrayList<>();
+        for (int t = startTime; t <= endTime; t++) {
+            // Worst-ranked entry on top so it is the one evicted
+            PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(RANK_ORDER.reversed());
+            for (TemporalObject obj : partition) {
+                Double value = obj.timeSeries.get(t);
+                if (value == null) continue;
+                Map.Entry<Integer, Double> entry = new AbstractMap.SimpleImmutableEntry<>(obj.id, value);
+                if (heap.size() < k) {
+                    heap.add(entry);
+                } else if (RANK_ORDER.compare(entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+            List<Map.Entry<Integer, Double>> top = new ArrayList<>(heap);
+            top.sort(RANK_ORDER);
+            result.add(top);
+        }
+        return result;
+    }
+
+    /*
+    Returns the ids of local objects ranked at or above the k-th (value, id) threshold in at least tau of the interval.
+     */
+    public List<Integer> countDurable(int startTime, int endTime, double tau, double[] thresholds, int[] thresholdIds) {
+        List<Integer> result = new ArrayList<>();
+        int duration = endTime - startTime + 1;
+        for (TemporalObject obj : partition) {
+            int count = 0;
+            for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
+                int t = entry.getKey();
+                if (t >= startTime && t <= endTime
+                        && ranksAtOrAbove(entry.getValue(), obj.id, thresholds[t - startTime], thresholdIds[t - startTime])) {
+                    count++;
+                }
+            }
+            if ((double) count / duration >= tau) {
+                result.add(obj.id);
+            }
+        }
+        return result;
+    }
+
+    static boolean ranksAtOrAbove(double value, int id, double thresholdValue, int thresholdId) {
+        return value > thresholdValue || (value == thresholdValue && id <= thresholdId);
+    }
+
+    /*
+    Serves coordinator requests on a single connection until a shutdown command or end of stream.
+     */
+    public void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        while (true) {
+            int command;
+            try {
+                command = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            if (command == CMD_TOPK_VALUES) {
+                int k = in.readInt();
+                int startTime = in.readInt();
+                int endTime = in.readInt();
+                for (List<Map.Entry<Integer, Double>> top : localTopK(k, startTime, endTime)) {
+                    out.writeInt(top.size());
+                    for (Map.Entry<Integer, Double> entry : top) {
+                        out.writeDouble(entry.getValue());
+                        out.writeInt(entry.getKey());
+                    }
+                }
+            } else if (command == CMD_COUNT) {
+                int startTime = in.readInt();
+                int endTime = in.readInt();
+                double tau = in.readDouble();
+                double[] thresholds = new double[endTime - startTime + 1];
+                int[] thresholdIds = new int[thresholds.length];
+                for (int i = 0; i < thresholds.length; i++) {
+                    thresholds[i] = in.readDouble();
+                    thresholdIds[i] = in.readInt();
+                }
+                List<Integer> ids = countDurable(startTime, endTime, tau, thresholds, thresholdIds);
+                out.writeInt(ids.size());
+                for (int id : ids) {
+                    out.writeInt(id);
+                }
+            } else if (command == CMD_SHUTDOWN) {
+                return;
+            } else {
+                throw new IOException("Unknown command: " + command);
+            }
+            out.flush();
+        }
+    }
+
+    /*
+    Usage: ShardWorker <csvPath> <shardId> <numShards> <acceptTimeoutMs>
+    Binds an ephemeral loopback port and prints it on stdout so the coordinator can connect.
+    Exits if no coordinator connects within acceptTimeoutMs, e.g. because it died during startup.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 4) {
+            System.err.println("Usage: ShardWorker <csvPath> <shardId> <numShards> <acceptTimeoutMs>");
+            System.exit(1);
+        }
+        int shardId = Integer.parseInt(args[1]);
+        int numShards = Integer.parseInt(args[2]);
+        int acceptTimeoutMs = Integer.parseInt(args[3]);
+        ShardWorker worker = new ShardWorker(
+                LoadCSVData.loadFromCSV(args[0], id -> shardOf(id, numShards) == shardId), shardId, numShards);
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            System.out.println(server.getLocalPort());
+            System.out.flush();
+            server.setSoTimeout(acceptTimeoutMs);
+            try (Socket socket = server.accept()) {
+                worker.serve(socket);
+            } catch (SocketTimeoutException e) {
+                System.err.println("Shard " + shardId + ": no coordinator connected within " + acceptTimeoutMs + " ms, exiting.");
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package durabletopk;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ Coordinator for sharded durable top-k. Launches one ShardWorker process per hash partition of object ids,
+ gathers each shard's local top-k values to derive the global k-th value threshold of every timestamp,
+ broadcasts those thresholds back, and merges the durable ids each shard reports.
+ */
+public class ShardedDurableTopK implements AutoCloseable {
+    public static final int DEFAULT_TIMEOUT_MS = 60_000;
+
+    private final List<Process> workers = new ArrayList<>();
+    private final List<Socket> sockets = new ArrayList<>();
+    private final List<DataInputStream> inputs = new ArrayList<>();
+    private final List<DataOutputStream> outputs = new ArrayList<>();
+    private final ExecutorService pool;
+    private volatile boolean closed;
+
+    public ShardedDurableTopK(String filePath, int numShards) throws IOException {
+        this(filePath, numShards, DEFAULT_TIMEOUT_MS);
+    }
+
+    /*
+    Starts numShards worker JVMs on the current classpath, each loading its own partition of the CSV at filePath.
+    timeoutMs bounds each worker's startup, the socket connect, every read of a shard's reply, and how long
+    a worker waits for this coordinator to connect before exiting.
+     */
+    public ShardedDurableTopK(String filePath, int numShards, int timeoutMs) throws IOException {
+        if (filePath == null || numShards <= 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("Invalid input to ShardedDurableTopK constructor.");
+        }
+        this.pool = Executors.newFixedThreadPool(numShards);
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+        try {
+            for (int shard = 0; shard < numShards; shard++) {
+                ProcessBuilder builder = new ProcessBuilder(javaBin, "-cp", classPath, ShardWorker.class.getName(),
+                        filePath, String.valueOf(shard), String.valueOf(numShards), String.valueOf(timeoutMs));
+                builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+                workers.add(builder.start());
+            }
+            // Workers print their ephemeral port once their partition is loaded
+            for (Process worker : workers) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(worker.getInputStream()));
+                // readLine cannot time out by itself, so wait for it on the pool; close() kills a hung worker
+                Future<String> portFuture = pool.submit(reader::readLine);
+                String portLine;
+                try {
+                    portLine = portFuture.get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    throw new IOException("Shard worker did not report its port within " + timeoutMs + " ms.");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while starting shard workers.", e);
+                } catch (ExecutionException e) {
+                    throw asIOException(e.getCause());
+                }
+                if (portLine == null) {
+                    throw new IOException("Shard worker exited before reporting its port.");
+                }
+                Socket socket = new Socket();
+                sockets.add(socket);
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(portLine.trim())), timeoutMs);
+                socket.setSoTimeout(timeoutMs);
+                inputs.add(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+                outputs.add(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Startup failed, so nothing needs a graceful shutdown
+            for (Process worker : workers) {
+                worker.destroyForcibly();
+            }
+            close();
+            throw e;
+        }
+    }
+
+    /*
+    Returns ids of objects ranked in the top-k for at least tau of the timestamps in [startTime, endTime].
+     */
+    public List<Integer> query(int k, int startTime, int endTime, double tau) {
+        if (k <= 0 || startTime > endTime || tau < 0 || tau > 1) {
+            throw new IllegalArgumentException("Invalid query parameters!!");
+        }
+        if (closed) {
+            throw new IllegalStateException("ShardedDurableTopK is closed, either explicitly or after a failed shard request.");
+        }
+        int duration = endTime - startTime + 1;
+        double[] thresholds = new double[duration];
+        int[] thresholdIds = new int[duration];
+        computeThresholds(k, startTime, endTime, thresholds, thresholdIds);
+        List<List<Integer>> partial = scatter(shard -> {
+            DataOutputStream out = outputs.get(shard);
+            out.writeInt(ShardWorker.CMD_COUNT);
+            out.writeInt(startTime);
+            out.writeInt(endTime);
+            out.writeDouble(tau);
+            for (int i = 0; i < duration; i++) {
+                out.writeDouble(thresholds[i]);
+                out.writeInt(thresholdIds[i]);
+            }
+            out.flush();
+            DataInputStream in = inputs.get(shard);
+            int size = in.readInt();
+            List<Integer> ids = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ids.add(in.readInt());
+            }
+            return ids;
+        });
+        List<Integer> result = new ArrayList<>();
+        for (List<Integer> ids : partial) {
+            result.addAll(ids);
+        }
+        // Shards answer in partition order; sort so the result is ordered by id like the single-JVM indexes
+        Collections.sort(result);
+        return result;
+    }
+
+    /*
+    Merges per-shard top-k pairs into the global k-th (value, id) of each timestamp under ShardWorker.RANK_ORDER.
+    Timestamps with fewer than k values get (negative infinity, Integer.MAX_VALUE), so every present object qualifies.
+     */
+    private void computeThresholds(int k, int startTime, int endTime, double[] thresholds, int[] thresholdIds) {
+        int duration = endTime - startTime + 1;
+        List<List<List<Map.Entry<Integer, Double>>>> partial = scatter(shard -> {
+            DataOutputStream out = outputs.get(shard);
+            out.writeInt(ShardWorker.CMD_TOPK_VALUES);
+            out.writeInt(k);
+            out.writeInt(startTime);
+            out.writeInt(endTime);
+            out.flush();
+            DataInputStream in = inputs.get(shard);
+            List<List<Map.Entry<Integer, Double>>> values = new ArrayList<>(duration);
+            for (int i = 0; i < duration; i++) {
+                int size = in.readInt();
+                List<Map.Entry<Integer, Double>> top = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    double value = in.readDouble();
+                    top.add(new AbstractMap.SimpleImmutableEntry<>(in.readInt(), value));
+                }
+                values.add(top);
+            }
+            return values;
+        });
+        for (int i = 0; i < duration; i++) {
+            PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(ShardWorker.RANK_ORDER.reversed());
+            for (List<List<Map.Entry<Integer, Double>>> shardValues : partial) {
+                for (Map.Entry<Integer, Double> entry : shardValues.get(i)) {
+                    if (heap.size() < k) {
+                        heap.add(entry);
+                    } else if (ShardWorker.RANK_ORDER.compare(entry, heap.peek()) < 0) {
+                        heap.poll();
+                        heap.add(entry);
+                    } else {
+                        break; // shard pairs arrive in rank order
+                    }
+                }
+            }
+            if (heap.size() < k) {
+                thresholds[i] = Double.NEGATIVE_INFINITY;
+                thresholdIds[i] = Integer.MAX_VALUE;
+            } else {
+                thresholds[i] = heap.peek().getValue();
+                thresholdIds[i] = heap.peek().getKey();
+            }
+        }
+    }
+
+    private interface ShardCall<T> {
+        T call(int shard) throws IOException;
+    }
+
+    /*
+    Runs call on every shard in parallel. A failed call can leave part of a reply unread on its socket, which the
+    next request would misread as its own answer, so any failure closes the coordinator for good.
+     */
+    private <T> List<T> scatter(ShardCall<T> call) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (int shard = 0; shard < sockets.size(); shard++) {
+            final int s = shard;
+            futures.add(pool.submit(() -> call.call(s)));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while waiting for shard workers.", e);
+        } catch (ExecutionException e) {
+            close();
+            throw new UncheckedIOException("Shard worker request failed.", asIOException(e.getCause()));
+        }
+        return results;
+    }
+
+    private static IOException asIOException(Throwable cause) {
+        return cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (DataOutputStream out : outputs) {
+            try {
+                out.writeInt(ShardWorker.CMD_SHUTDOWN);
+                out.flush();
+            } catch (IOException ignored) {
+                // worker already gone; the process is destroyed below if it lingers
+            }
+        }
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        for (Process worker : workers) {
+            try {
+                if (!worker.waitFor(5, TimeUnit.SECONDS)) {
+                    worker.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                worker.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,272 @@
+package durabletopk;
+
+import java.util.*;
+
+/**
+ Fixed-memory approximate durable top-k over an unbounded stream of snapshots. Each timestamp's top-k ids are
+ fed into a Space-Saving summary of capacity counters per indexed k, over tumbling or exponentially decaying
+ windows. For an indexed k, estimated durability overshoots the true value by at most k / capacity, so when tau
+ exceeds that bound query never misses an object with true durability >= tau; queryGuaranteed never returns one below tau.
+ Any other k is answered from the nearest indexed k's summary, which counts a different top-k, so none of this holds.
+ Memory is O(|ks| * capacity) regardless of how many distinct objects the stream contains.
+ */
+public class StreamingSketchDurableTopK {
+    private static final DurableTopKMetrics metrics = DurableTopKMetrics.forAlgorithm("StreamingSketch");
+    // Rough payload per Space-Saving counter: id, count, error and its ordered-set and hash-map entries
+    private static final int BYTES_PER_COUNTER = 64;
+    // Decaying weights grow as 1/decay^t; rescale before they lose precision
+    private static final double RESCALE_THRESHOLD = 1e100;
+
+    public enum WindowMode { TUMBLING, DECAYING }
+
+    private static class Counter {
+        final int id;
+        double count;
+        double error;
+
+        Counter(int id, double count, double error) {
+            this.id = id;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /*
+    Weighted Space-Saving: a new id evicts the smallest counter and inherits its count as error.
+     */
+    private static class SpaceSaving {
+        private final int capacity;
+        private final Map<Integer, Counter> counters = new HashMap<>();
+        private final TreeSet<Counter> byCount = new TreeSet<>((a, b) ->
+                a.count != b.count ? Double.compare(a.count, b.count) : Integer.compare(a.id, b.id));
+        private double totalWeight;
+        private int timestamps;
+
+        SpaceSaving(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(int id, double weight) {
+            Counter counter = counters.get(id);
+            if (counter != null) {
+                byCount.remove(counter);
+                counter.count += weight;
+            } else if (counters.size() < capacity) {
+                counter = new Counter(id, weight, 0.0);
+                counters.put(id, counter);
+            } else {
+                Counter min = byCount.pollFirst();
+                counters.remove(min.id);
+                counter = new Counter(id, min.count + weight, min.count);
+                counters.put(id, counter);
+            }
+            byCount.add(counter);
+        }
+
+        void scale(double factor) {
+            byCount.clear();
+            for (Counter counter : counters.values()) {
+                counter.count *= factor;
+                counter.error *= factor;
+                byCount.add(counter);
+            }
+            totalWeight *= factor;
+        }
+    }
+
+    private final int[] topKValues;
+    private final int capacity;
+    private final WindowMode mode;
+    private final int windowLength;
+    private final double decay;
+    private SpaceSaving[] current;
+    private SpaceSaving[] completed;
+    private int timestampsInWindow;
+    private int lastTime = Integer.MIN_VALUE;
+    private double nextWeight = 1.0;
+
+    private StreamingSketchDurableTopK(List<Integer> ks, int capacity, WindowMode mode, int windowLength, double decay) {
+        if (ks == null || ks.isEmpty() || capacity <= 0) {
+            throw new IllegalArgumentException("Invalid input to StreamingSketchDurableTopK constructor.");
+        }
+        List<Integer> sorted = new ArrayList<>(ks);
+        Collections.sort(sorted);
+        this.topKValues = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i) <= 0 || sorted.get(i) > capacity) {
+                throw new IllegalArgumentException("Indexed k must be between 1 and the sketch capacity.");
+            }
+            topKValues[i] = sorted.get(i);
+        }
+        this.capacity = capacity;
+        this.mode = mode;
+        this.windowLength = windowLength;
+        this.decay = decay;
+        this.current = newSummaries();
+        metrics.setIndexBytes((long) BYTES_PER_COUNTER * capacity * topKValues.length * (mode == WindowMode.TUMBLING ? 2 : 1));
+    }
+
+    /*
+    Counts durability over consecutive, non-overlapping windows of windowLength timestamps.
+    Queries answer for the last completed window, or for the partial first window until one completes.
+     */
+    public static StreamingSketchDurableTopK tumbling(List<Integer> ks, int capacity, int windowLength) {
+        if (windowLength <= 0) {
+            throw new IllegalArgumentException("Window length must be positive.");
+        }
+        return new StreamingSketchDurableTopK(ks, capacity, WindowMode.TUMBLING, windowLength, 1.0);
+    }
+
+    /*
+    Weights a timestamp seen t steps ago by decay^t, so durability reflects roughly the last 1 / (1 - decay) timestamps.
+     */
+    public static StreamingSketchDurableTopK decaying(List<Integer> ks, int capacity, double decay) {
+        if (decay <= 0 || decay > 1) {
+            throw new IllegalArgumentException("Decay must be in (0, 1].");
+        }
+        return new StreamingSketchDurableTopK(ks, capacity, WindowMode.DECAYING, 0, decay);
+    }
+
+    /*
+    Consumes one snapshot (object id -> value). Timestamps must arrive in increasing order.
+     */
+    public void addTimestamp(int time, Map<Integer, Double> values) {
+        if (time <= lastTime) {
+            throw new IllegalArgumentException("Timestamps must be strictly increasing: " + time + " after " + lastTime);
+        }
+        lastTime = time;
+        int maxK = topKValues[topKValues.length - 1];
+        // Min-heap of the best maxK entries keeps per-timestamp work at O(n log k)
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Double> entry : values.entrySet()) {
+            if (heap.size() < maxK) {
+                heap.add(entry);
+            } else if (entry.getValue() > heap.peek().getValue()) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        int[] ranked = new int[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll().getKey();
+        }
+
+        double weight = nextWeight;
+        for (int kIndex = 0; kIndex < topKValues.length; kIndex++) {
+            SpaceSaving summary = current[kIndex];
+            int limit = Math.min(topKValues[kIndex], ranked.length);
+            for (int i = 0; i < limit; i++) {
+                summary.offer(ranked[i], weight);
+            }
+            summary.totalWeight += weight;
+            summary.timestamps++;
+        }
+
+        if (mode == WindowMode.TUMBLING) {
+            if (++timestampsInWindow == windowLength) {
+                completed = current;
+                current = newSummaries();
+                timestampsInWindow = 0;
+            }
+        } else {
+            nextWeight /= decay;
+            if (nextWeight > RESCALE_THRESHOLD) {
+                for (SpaceSaving summary : current) {
+                    summary.scale(1.0 / nextWeight);
+                }
+                nextWeight = 1.0;
+            }
+        }
+    }
+
+    /*
+    Replays a loaded dataset in timestamp order, e.g. to compare against the batch indexes.
+     */
+    public void addAll(List<TemporalObject> objects) {
+        TreeMap<Integer, Map<Integer, Double>> snapshots = new TreeMap<>();
+        for (TemporalObject obj : objects) {
+            for (Map.Entry<Integer, Double> entry : obj.timeSeries.entrySet()) {
+                snapshots.computeIfAbsent(entry.getKey(), x -> new HashMap<>()).put(obj.id, entry.getValue());
+            }
+        }
+        for (Map.Entry<Integer, Map<Integer, Double>> snapshot : snapshots.entrySet()) {
+            addTimestamp(snapshot.getKey(), snapshot.getValue());
+        }
+    }
+
+    /*
+    Returns object IDs, in ascending order, whose estimated durability >= tau for a given k value. If k is indexed and tau > errorBound(k)
+    this contains every object whose true durability is >= tau, plus possibly some within errorBound(k) below it.
+    A k that is not indexed is approximated with the nearest indexed k and carries no guarantee.
+    */
+    public List<Integer> query(int k, double tau) {
+        return query(k, tau, false);
+    }
+
+    /*
+    Returns only object IDs whose durability is provably >= tau (estimate minus its recorded error), for an indexed k.
+    */
+    public List<Integer> queryGuaranteed(int k, double tau) {
+        return query(k, tau, true);
+    }
+
+    /*
+    Maximum overestimate of durability for k. A k that is not indexed has no bound, reported as 1.0.
+     */
+    public double errorBound(int k) {
+        if (!isIndexed(k)) {
+            return 1.0;
+        }
+        return (double) k / capacity;
+    }
+
+    public boolean isIndexed(int k) {
+        return Arrays.binarySearch(topKValues, k) >= 0;
+    }
+
+    private List<Integer> query(int k, double tau, boolean guaranteed) {
+        if (k <= 0 || tau < 0 || tau > 1) {
+            throw new IllegalArgumentException("Invalid query parameters!!");
+        }
+        long queryStart = System.nanoTime();
+        int kIndex = findBestApproximateK(k);
+        if (topKValues[kIndex] == k) {
+            metrics.recordCacheHit();
+        }
+        SpaceSaving summary = (mode == WindowMode.TUMBLING && completed != null) ? completed[kIndex] : current[kIndex];
+        List<Integer> result = new ArrayList<>();
+        if (summary.totalWeight > 0) {
+            for (Counter counter : summary.counters.values()) {
+                double count = guaranteed ? counter.count - counter.error : counter.count;
+                if (count / summary.totalWeight >= tau) {
+                    result.add(counter.id);
+                }
+            }
+        }
+        // Counters live in a HashMap; sort so the result is ordered by id like the batch indexes
+        Collections.sort(result);
+        metrics.recordQuery(System.nanoTime() - queryStart, summary.counters.size(), result.size(), summary.timestamps);
+        return result;
+    }
+
+    private int findBestApproximateK(int k) {
+        int minDiff = Integer.MAX_VALUE;
+        int best = 0;
+        for (int kIndex = 0; kIndex < topKValues.length; kIndex++) {
+            int diff = Math.abs(k - topKValues[kIndex]);
+            if (diff < minDiff) {
+                minDiff = diff;
+                best = kIndex;
+            }
+        }
+        return best;
+    }
+
+    private SpaceSaving[] newSummaries() {
+        SpaceSaving[] summaries = new SpaceSaving[topKValues.length];
+        for (int i = 0; i < summaries.length; i++) {
+            summaries[i] = new SpaceSaving(capacity);
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,144 @@
+package durabletopk;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ Deterministic synthetic workload generator. Rows are emitted timestamp by timestamp and only one state value
+ per object is kept, so datasets far larger than memory can be streamed straight to CSV or binary.
+ The same (model, objects, timestamps, sparsity, seed) always produces the same rows.
+ */
+public class SyntheticDataGenerator {
+    public enum Model { AR1, RANDOM_WALK, BURSTY, HEAVY_TAILED }
+
+    public interface RowSink {
+        void accept(int id, int time, double value) throws IOException;
+    }
+
+    private static final double AR1_PHI = 0.9;
+    private static final double BURST_START_PROBABILITY = 0.01;
+    private static final double BURST_MEAN_LENGTH = 20.0;
+    private static final double PARETO_ALPHA = 1.5;
+
+    private final Model model;
+    private final int numObjects;
+    private final int numTimestamps;
+    private final double sparsity;
+    private final long seed;
+
+    /*
+    Object ids run 1..numObjects and timestamps 1..numTimestamps. Each (object, timestamp) cell is dropped
+    with probability sparsity; the underlying series still advances so density does not change the values.
+     */
+    public SyntheticDataGenerator(Model model, int numObjects, int numTimestamps, double sparsity, long seed) {
+        if (model == null || numObjects <= 0 || numTimestamps <= 0 || sparsity < 0 || sparsity >= 1) {
+            throw new IllegalArgumentException("Invalid input to SyntheticDataGenerator constructor.");
+        }
+        this.model = model;
+        this.numObjects = numObjects;
+        this.numTimestamps = numTimestamps;
+        this.sparsity = sparsity;
+        this.seed = seed;
+    }
+
+    public void generate(RowSink sink) throws IOException {
+        Random rand = new Random(seed);
+        double[] level = new double[numObjects + 1];
+        double[] mean = new double[numObjects + 1];
+        int[] burstRemaining = new int[numObjects + 1];
+        double[] burstAmplitude = new double[numObjects + 1];
+        for (int id = 1; id <= numObjects; id++) {
+            mean[id] = rand.nextGaussian();
+        }
+        for (int t = 1; t <= numTimestamps; t++) {
+            for (int id = 1; id <= numObjects; id++) {
+                double value;
+                switch (model) {
+                    case AR1:
+                        level[id] = AR1_PHI * level[id] + rand.nextGaussian();
+                        value = mean[id] + level[id];
+                        break;
+                    case RANDOM_WALK:
+                        level[id] += rand.nextGaussian();
+                        value = mean[id] + level[id];
+                        break;
+                    case BURSTY:
+                        level[id] = AR1_PHI * level[id] + 0.1 * rand.nextGaussian();
+                        if (burstRemaining[id] == 0 && rand.nextDouble() < BURST_START_PROBABILITY) {
+                            // Geometric burst length and exponential burst height
+                            burstRemaining[id] = 1 + (int) (-Math.log(1 - rand.nextDouble()) * BURST_MEAN_LENGTH);
+                            burstAmplitude[id] = -Math.log(1 - rand.nextDouble()) * 5.0;
+                        }
+                        value = mean[id] + level[id] + (burstRemaining[id] > 0 ? burstAmplitude[id] : 0.0);
+                        if (burstRemaining[id] > 0) burstRemaining[id]--;
+                        break;
+                    case HEAVY_TAILED:
+                        // Symmetric Pareto noise: infinite variance for alpha < 2
+                        double pareto = Math.pow(1 - rand.nextDouble(), -1.0 / PARETO_ALPHA) - 1;
+                        value = mean[id] + (rand.nextBoolean() ? pareto : -pareto);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown model: " + model);
+                }
+                if (rand.nextDouble() >= sparsity) {
+                    sink.accept(id, t, value);
+                }
+            }
+        }
+    }
+
+    /*
+    Writes rows in the object_id,time,value layout read by LoadCSVData.loadFromCSV.
+     */
+    public void writeCSV(String filePath) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            writer.write("object_id,time,value\n");
+            generate((id, time, value) -> {
+                writer.write(id + "," + time + "," + value + "\n");
+            });
+        }
+    }
+
+    /*
+    Writes rows as consecutive (int id, int time, double value) records, read by LoadCSVData.loadFromBinary.
+     */
+    public void writeBinary(String filePath) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            generate((id, time, value) -> {
+                out.writeInt(id);
+                out.writeInt(time);
+                out.writeDouble(value);
+            });
+        }
+    }
+
+    public List<TemporalObject> generateObjects() {
+        Map<Integer, TemporalObject> objectMap = new HashMap<>();
+        try {
+            generate((id, time, value) -> objectMap.computeIfAbsent(id, TemporalObject::new).addValue(time, value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ArrayList<>(objectMap.values());
+    }
+
+    /*
+    Usage: SyntheticDataGenerator <AR1|RANDOM_WALK|BURSTY|HEAVY_TAILED> <objects> <timestamps> <sparsity> <seed> <output.csv|output.bin>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6) {
+            System.err.println("Usage: SyntheticDataGenerator <AR1|RANDOM_WALK|BURSTY|HEAVY_TAILED> <objects> <timestamps> <sparsity> <seed> <output.csv|output.bin>");
+            System.exit(1);
+        }
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(Model.valueOf(args[0].toUpperCase()),
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]), Double.parseDouble(args[3]), Long.parseLong(args[4]));
+        String output = args[5];
+        long start = System.currentTimeMillis();
+        if (output.endsWith(".bin")) {
+            generator.writeBinary(output);
+        } else {
+            generator.writeCSV(output);
+        }
+        System.out.println("Wrote " + output + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}